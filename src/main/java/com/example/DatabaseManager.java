@@ -7,11 +7,14 @@ import lombok.RequiredArgsConstructor;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Properties;
 import java.util.UUID;
 
 @RequiredArgsConstructor
 public class DatabaseManager {
+    public static final String NEW_TRANSACTION_CHANNEL = "new_transaction";
     private final HikariDataSource dataSource;
     String dbUrl = "jdbc:postgresql://localhost:5432/Transactions";
     String username = "sa";
@@ -22,6 +25,14 @@ public class DatabaseManager {
         initDatabase();
     }
 
+    public DatabaseManager(String dbUrl, String username, String password) {
+        this.dbUrl = dbUrl;
+        this.username = username;
+        this.password = password;
+        this.dataSource = configureDataSource(dbUrl, username, password);
+        initDatabase();
+    }
+
     private HikariDataSource configureDataSource(String dbUrl, String username, String password) {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(dbUrl);
@@ -46,9 +57,36 @@ public class DatabaseManager {
             )
             """;
 
+        // Partial index backing the catch-up keyset scan over NEW rows in fetchNewTransactions
+        String keysetIndexSql = """
+            CREATE INDEX IF NOT EXISTS idx_transactions_new_keyset
+            ON transactions (created_at, id)
+            WHERE status = 'NEW'
+            """;
+
+        String notifyFunctionSql = """
+            CREATE OR REPLACE FUNCTION notify_new_transaction() RETURNS trigger AS $$
+            BEGIN
+                PERFORM pg_notify('%s', NEW.id::text);
+                RETURN NEW;
+            END;
+            $$ LANGUAGE plpgsql
+            """.formatted(NEW_TRANSACTION_CHANNEL);
+
+        String notifyTriggerSql = """
+            CREATE OR REPLACE TRIGGER transactions_notify_new
+            AFTER INSERT ON transactions
+            FOR EACH ROW
+            WHEN (NEW.status = 'NEW')
+            EXECUTE FUNCTION notify_new_transaction()
+            """;
+
         try (var conn = dataSource.getConnection();
              Statement stmt = conn.createStatement()) {
             stmt.execute(sql);
+            stmt.execute(keysetIndexSql);
+            stmt.execute(notifyFunctionSql);
+            stmt.execute(notifyTriggerSql);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize database", e);
         }
@@ -68,18 +106,7 @@ public class DatabaseManager {
              ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                UUID id = rs.getObject("id", UUID.class);
-                BigDecimal amount = rs.getBigDecimal("amount");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-                String status = rs.getString("status");
-                int retryCount = rs.getInt("retry_count");
-
-                Transaction transaction = new Transaction(id, amount);
-                transaction.setCreatedAt(createdAt.toLocalDateTime());
-                transaction.setStatus(TransactionStatus.valueOf(status));
-                transaction.setRetryCount(retryCount);
-
-                transactionsToRecover.add(transaction);
+                transactionsToRecover.add(mapTransaction(rs));
             }
 
         } catch (SQLException e) {
@@ -89,6 +116,118 @@ public class DatabaseManager {
         return transactionsToRecover;
     }
 
+    /**
+     * Returns up to {@code limit} NEW transactions ordered by (created_at, id), starting strictly after
+     * {@code after}. Pass {@code null} to start from the beginning of the table.
+     */
+    public List<Transaction> fetchNewTransactions(Transaction after, int limit) {
+        String sql = after == null
+                ? """
+                    SELECT id, amount, created_at, status, retry_count
+                    FROM transactions
+                    WHERE status = 'NEW'
+                    ORDER BY created_at, id
+                    LIMIT ?
+                    """
+                : """
+                    SELECT id, amount, created_at, status, retry_count
+                    FROM transactions
+                    WHERE status = 'NEW' AND (created_at, id) > (?, ?)
+                    ORDER BY created_at, id
+                    LIMIT ?
+                    """;
+
+        List<Transaction> newTransactions = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (after != null) {
+                pstmt.setTimestamp(index++, Timestamp.valueOf(after.getCreatedAt()));
+                pstmt.setObject(index++, after.getId());
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    newTransactions.add(mapTransaction(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch new transactions", e);
+        }
+
+        return newTransactions;
+    }
+
+    /**
+     * Returns the transactions among {@code ids} that are still NEW. Ids that are unknown or already
+     * picked up are silently left out.
+     */
+    public List<Transaction> fetchNewTransactionsByIds(Collection<UUID> ids) {
+        String sql = """
+            SELECT id, amount, created_at, status, retry_count
+            FROM transactions
+            WHERE status = 'NEW' AND id = ANY(?)
+            """;
+
+        List<Transaction> newTransactions = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setArray(1, conn.createArrayOf("uuid", ids.toArray()));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    newTransactions.add(mapTransaction(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch new transactions by id", e);
+        }
+
+        return newTransactions;
+    }
+
+    /**
+     * Opens a dedicated (non-pooled) connection subscribed to {@link #NEW_TRANSACTION_CHANNEL}.
+     * The caller owns the connection and must close it.
+     */
+    public Connection openNotificationConnection() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", username);
+        props.setProperty("password", password);
+        // The connection only ever waits for notifications, so let the OS detect a dead peer
+        props.setProperty("tcpKeepAlive", "true");
+
+        Connection conn = DriverManager.getConnection(dbUrl, props);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LISTEN " + NEW_TRANSACTION_CHANNEL);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    private Transaction mapTransaction(ResultSet rs) throws SQLException {
+        UUID id = rs.getObject("id", UUID.class);
+        BigDecimal amount = rs.getBigDecimal("amount");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        String status = rs.getString("status");
+        int retryCount = rs.getInt("retry_count");
+
+        Transaction transaction = new Transaction(id, amount);
+        transaction.setCreatedAt(createdAt.toLocalDateTime());
+        transaction.setStatus(TransactionStatus.valueOf(status));
+        transaction.setRetryCount(retryCount);
+        return transaction;
+    }
+
     public void saveTransaction(Transaction transaction) {
         String sql = """
             INSERT INTO transactions (id, amount, created_at, status, retry_count)
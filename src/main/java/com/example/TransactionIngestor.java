@@ -0,0 +1,115 @@
+package com.example;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Picks up NEW rows inserted into the transactions table by other services.
+ * <p>
+ * Blocks on Postgres LISTEN/NOTIFY and loads the notified ids in batches, so pickup does not depend on
+ * the writer's clock or commit order. A periodic catch-up scan walks all NEW rows in (created_at, id)
+ * keyset pages to cover notifications missed while disconnected.
+ * <p>
+ * Notified rows and catch-up pages go to separate sinks: notified rows were read as NEW just now, while a
+ * catch-up page may list rows that were picked up after it was read. Both may repeat rows already handed
+ * over, so the sinks must tolerate duplicates.
+ */
+class TransactionIngestor implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(TransactionIngestor.class);
+    private static final int BATCH_SIZE = 500;
+    private static final int NOTIFICATION_WAIT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final Duration CATCH_UP_INTERVAL = Duration.ofMinutes(1);
+
+    private final DatabaseManager dbManager;
+    private final Consumer<List<Transaction>> notifiedSink;
+    private final Consumer<List<Transaction>> catchUpSink;
+    // System.nanoTime() based, so a wall-clock step cannot postpone the catch-up or the link check
+    private long nextCatchUpNanos;
+
+    public TransactionIngestor(DatabaseManager dbManager,
+                               Consumer<List<Transaction>> notifiedSink,
+                               Consumer<List<Transaction>> catchUpSink) {
+        this.dbManager = dbManager;
+        this.notifiedSink = notifiedSink;
+        this.catchUpSink = catchUpSink;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = dbManager.openNotificationConnection()) {
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                // Subscribed before scanning, so rows inserted during the scan still notify us
+                catchUp();
+                listen(conn, pgConnection);
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Transaction ingestion interrupted, reconnecting in {} ms", RECONNECT_DELAY_MILLIS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void listen(Connection conn, PGConnection pgConnection) throws SQLException {
+        while (!Thread.currentThread().isInterrupted()) {
+            PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_WAIT_MILLIS);
+            if (notifications != null && notifications.length > 0) {
+                ingestNotified(notifications);
+            }
+            if (System.nanoTime() - nextCatchUpNanos >= 0) {
+                // A silently dropped link keeps returning no notifications instead of failing
+                if (!conn.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Notification connection is no longer valid");
+                }
+                catchUp();
+            }
+        }
+    }
+
+    private void ingestNotified(PGNotification[] notifications) {
+        List<UUID> ids = new ArrayList<>(notifications.length);
+        for (PGNotification notification : notifications) {
+            // The channel is open to any session, so one bad payload must not discard the batch
+            try {
+                ids.add(UUID.fromString(notification.getParameter()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring notification with malformed transaction id '{}'", notification.getParameter());
+            }
+        }
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            List<Transaction> transactions = dbManager.fetchNewTransactionsByIds(batch);
+            if (!transactions.isEmpty()) {
+                notifiedSink.accept(transactions);
+            }
+        }
+    }
+
+    private void catchUp() {
+        Transaction cursor = null;
+        List<Transaction> page;
+        do {
+            page = dbManager.fetchNewTransactions(cursor, BATCH_SIZE);
+            if (!page.isEmpty()) {
+                catchUpSink.accept(page);
+                cursor = page.get(page.size() - 1);
+            }
+        } while (page.size() == BATCH_SIZE);
+        nextCatchUpNanos = System.nanoTime() + CATCH_UP_INTERVAL.toNanos();
+    }
+}
@@ -3,8 +3,11 @@ package com.example;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
@@ -14,20 +17,28 @@ class TransactionProcessor {
     private final PriorityBlockingQueue<Transaction> retryQueue;
     private final ExecutorService mainExecutor;
     private final ExecutorService retryExecutor;
+    private final ExecutorService ingestExecutor;
     private final DatabaseManager dbManager;
     private final TransactionUI gui;
     private final Map<String, Long> threadProcessingTimes;
     private final LocalDateTime systemStartTime;
     private final int threadsCount;
     private final Map<String, Thread> threadPoolThreads = new ConcurrentHashMap<>();
+    // Ids queued and not yet COMPLETED or FAILED, so ingestion never enqueues a row that is in flight
+    private final Set<UUID> queuedTransactionIds = ConcurrentHashMap.newKeySet();
 
     public TransactionProcessor(TransactionUI ui, int threadsCount) {
+        this(ui, new DatabaseManager(), threadsCount);
+    }
+
+    TransactionProcessor(TransactionUI ui, DatabaseManager dbManager, int threadsCount) {
         this.mainQueue = new PriorityBlockingQueue<>();
         this.retryQueue = new PriorityBlockingQueue<>();
         this.threadsCount = threadsCount;
         this.mainExecutor = createExecutor("MainProcessor", threadsCount);
         this.retryExecutor = createExecutor("RetryProcessor", RETRY_THREAD_COUNT);
-        this.dbManager = new DatabaseManager();
+        this.ingestExecutor = createExecutor("TransactionIngestor", 1);
+        this.dbManager = dbManager;
         this.gui = ui;
         this.threadProcessingTimes = new ConcurrentHashMap<>();
         this.systemStartTime = LocalDateTime.now();
@@ -53,6 +64,7 @@ class TransactionProcessor {
     private void initializeQueues() {
         var transactions = dbManager.recoverTransactions();
         for (Transaction transaction : transactions) {
+            queuedTransactionIds.add(transaction.getId());
             if (transaction.getStatus() == TransactionStatus.RETRY) {
                 retryQueue.add(transaction);
             } else {
@@ -69,6 +81,8 @@ class TransactionProcessor {
         for (int i = 0; i < RETRY_THREAD_COUNT; i++) {
             retryExecutor.submit(new QueueProcessor(retryQueue, true));
         }
+        ingestExecutor.submit(new TransactionIngestor(dbManager,
+                this::enqueueNotifiedTransactions, this::enqueueCatchUpPage));
     }
 
     class QueueProcessor implements Runnable {
@@ -109,6 +123,7 @@ class TransactionProcessor {
 
             threadProcessingTimes.merge(threadName, transaction.getProcessingTime(), Long::sum);
             updateTransactionInSystem(transaction);
+            queuedTransactionIds.remove(transaction.getId());
         } catch (Exception e) {
             handleTransactionFailure(transaction);
         }
@@ -133,6 +148,9 @@ class TransactionProcessor {
             transaction.setStatus(TransactionStatus.FAILED);
         }
         finalizeTransaction(transaction);
+        if (transaction.getStatus() == TransactionStatus.FAILED) {
+            queuedTransactionIds.remove(transaction.getId());
+        }
     }
 
     private void finalizeTransaction(Transaction transaction) {
@@ -151,13 +169,65 @@ class TransactionProcessor {
 
     public void addTransaction(BigDecimal amount) {
         Transaction transaction = new Transaction(amount);
+        // Registered before the insert fires its notification, so ingestion skips our own rows
+        queuedTransactionIds.add(transaction.getId());
         dbManager.saveTransaction(transaction);
         mainQueue.add(transaction);
         gui.addTransactionToTable(transaction);
     }
 
+    void enqueueNotifiedTransactions(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            if (queuedTransactionIds.add(transaction.getId())) {
+                enqueueIngestedTransaction(transaction);
+            }
+        }
+    }
+
+    void enqueueCatchUpPage(List<Transaction> page) {
+        List<Transaction> claimed = page.stream()
+                .filter(transaction -> queuedTransactionIds.add(transaction.getId()))
+                .toList();
+        if (claimed.isEmpty()) {
+            return;
+        }
+        // The page may have been read just before some of its rows finished processing, so re-check them
+        // after claiming: a row that finishes from here on is already in queuedTransactionIds
+        Set<UUID> stillNew = dbManager.fetchNewTransactionsByIds(claimed.stream().map(Transaction::getId).toList())
+                .stream()
+                .map(Transaction::getId)
+                .collect(Collectors.toSet());
+        for (Transaction transaction : claimed) {
+            if (stillNew.contains(transaction.getId())) {
+                enqueueIngestedTransaction(transaction);
+            } else {
+                queuedTransactionIds.remove(transaction.getId());
+            }
+        }
+    }
+
+    private void enqueueIngestedTransaction(Transaction transaction) {
+        mainQueue.add(transaction);
+        gui.addTransactionToTable(transaction);
+    }
+
 
     public long getTotalProcessingTime() {
         return Duration.between(systemStartTime, LocalDateTime.now()).toMillis();
     }
+
+    public void shutdown() {
+        mainExecutor.shutdownNow();
+        retryExecutor.shutdownNow();
+        ingestExecutor.shutdownNow();
+        try {
+            // Interrupted workers still write their final status, so keep the pool open until they stop
+            mainExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            retryExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            ingestExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dbManager.close();
+    }
 }
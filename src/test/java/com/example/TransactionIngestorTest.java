@@ -0,0 +1,202 @@
+package com.example;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs against the Postgres from docker-compose.yaml ({@code docker compose up -d}) and is skipped when
+ * it is not reachable. Every test gets a freshly created schema, so rows belonging to the application in
+ * the public schema are never read or modified.
+ */
+class TransactionIngestorTest {
+    private static final String SERVER_URL = "jdbc:postgresql://localhost:5432/Transactions";
+    private static final String TEST_SCHEMA = "transaction_ingestor_test";
+    private static final String DB_URL = SERVER_URL + "?currentSchema=" + TEST_SCHEMA;
+    private static final String DB_USER = "sa";
+    private static final String DB_PASSWORD = "pa";
+    private static final Duration PICKUP_TIMEOUT = Duration.ofSeconds(2);
+
+    private static boolean postgresReachable;
+
+    @BeforeAll
+    static void requirePostgres() {
+        DriverManager.setLoginTimeout(2);
+        try (Connection ignored = DriverManager.getConnection(SERVER_URL, DB_USER, DB_PASSWORD)) {
+            postgresReachable = true;
+        } catch (SQLException e) {
+            assumeTrue(false, "Postgres is not reachable at " + SERVER_URL + ": " + e.getMessage());
+        }
+    }
+
+    @BeforeEach
+    void recreateSchema() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(SERVER_URL, DB_USER, DB_PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + TEST_SCHEMA + " CASCADE");
+            stmt.execute("CREATE SCHEMA " + TEST_SCHEMA);
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        if (!postgresReachable) {
+            return;
+        }
+        try (Connection conn = DriverManager.getConnection(SERVER_URL, DB_USER, DB_PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + TEST_SCHEMA + " CASCADE");
+        }
+    }
+
+    @Test
+    void picksUpExternalRowsWithinTimeoutRegardlessOfCreatedAtOrder() throws Exception {
+        DatabaseManager dbManager = newDatabaseManager();
+        Map<UUID, Long> firstDeliveryNanos = new ConcurrentHashMap<>();
+        Consumer<List<Transaction>> sink = transactions -> transactions.forEach(transaction ->
+                firstDeliveryNanos.putIfAbsent(transaction.getId(), System.nanoTime()));
+        Thread ingestorThread = new Thread(new TransactionIngestor(dbManager, sink, sink));
+
+        try (Connection writer = openConnection()) {
+            ingestorThread.start();
+
+            // Once this row arrives the ingestor is listening and its startup catch-up has run
+            UUID warmUp = insertTransaction(writer, LocalDateTime.now(), TransactionStatus.NEW);
+            awaitTrue(() -> firstDeliveryNanos.containsKey(warmUp), "warm-up row was not ingested");
+
+            long insertedAt = System.nanoTime();
+            UUID current = insertTransaction(writer, LocalDateTime.now(), TransactionStatus.NEW);
+            // Sorts before everything ingested so far, as if written by a host with a lagging clock
+            UUID backdated = insertTransaction(writer, LocalDateTime.now().minusHours(1), TransactionStatus.NEW);
+
+            awaitTrue(() -> firstDeliveryNanos.containsKey(current), "row was not ingested");
+            awaitTrue(() -> firstDeliveryNanos.containsKey(backdated), "backdated row was not ingested");
+            assertTrue(firstDeliveryNanos.get(backdated) - insertedAt < PICKUP_TIMEOUT.toNanos());
+        } finally {
+            ingestorThread.interrupt();
+            ingestorThread.join(5000);
+            dbManager.close();
+        }
+    }
+
+    @Test
+    void processorQueuesItsOwnTransactionsOnce() throws Exception {
+        TransactionUI ui = mock(TransactionUI.class);
+        TransactionProcessor processor = new TransactionProcessor(ui, newDatabaseManager(), 2);
+        ArgumentCaptor<Transaction> added = ArgumentCaptor.forClass(Transaction.class);
+
+        try {
+            for (int i = 0; i < 5; i++) {
+                processor.addTransaction(BigDecimal.valueOf(100 + i));
+            }
+            // Leave time for the trigger's notifications to reach the ingestor
+            Thread.sleep(PICKUP_TIMEOUT.toMillis());
+
+            verify(ui, times(5)).addTransactionToTable(added.capture());
+            Map<UUID, Long> timesAdded = added.getAllValues().stream()
+                    .collect(Collectors.groupingBy(Transaction::getId, Collectors.counting()));
+            assertEquals(5, timesAdded.size());
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    void processorQueuesExternalInsertOnce() throws Exception {
+        TransactionUI ui = mock(TransactionUI.class);
+        DatabaseManager dbManager = newDatabaseManager();
+        TransactionProcessor processor = new TransactionProcessor(ui, dbManager, 2);
+
+        try (Connection writer = openConnection()) {
+            UUID external = insertTransaction(writer, LocalDateTime.now(), TransactionStatus.NEW);
+            verify(ui, timeout(PICKUP_TIMEOUT.toMillis())).addTransactionToTable(withId(external));
+
+            // A catch-up page overlapping the notification must not queue the row again
+            processor.enqueueCatchUpPage(List.of(new Transaction(external, BigDecimal.valueOf(250))));
+
+            Thread.sleep(PICKUP_TIMEOUT.toMillis());
+            verify(ui, times(1)).addTransactionToTable(withId(external));
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    void processorSkipsRowsThatFinishedAfterTheCatchUpPageWasRead() throws Exception {
+        TransactionUI ui = mock(TransactionUI.class);
+        TransactionProcessor processor = new TransactionProcessor(ui, newDatabaseManager(), 2);
+
+        try (Connection writer = openConnection()) {
+            UUID finished = insertTransaction(writer, LocalDateTime.now(), TransactionStatus.COMPLETED);
+            // What a catch-up page read before the row completed would still report
+            Transaction stale = new Transaction(finished, BigDecimal.valueOf(250));
+
+            processor.enqueueCatchUpPage(List.of(stale));
+
+            verify(ui, never()).addTransactionToTable(withId(finished));
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    private static Transaction withId(UUID id) {
+        return argThat(transaction -> transaction.getId().equals(id));
+    }
+
+    private static DatabaseManager newDatabaseManager() {
+        return new DatabaseManager(DB_URL, DB_USER, DB_PASSWORD);
+    }
+
+    private static UUID insertTransaction(Connection conn, LocalDateTime createdAt, TransactionStatus status)
+            throws SQLException {
+        UUID id = UUID.randomUUID();
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO transactions (id, amount, created_at, status, retry_count)
+                VALUES (?, ?, ?, ?, 0)
+                """)) {
+            pstmt.setObject(1, id);
+            pstmt.setBigDecimal(2, BigDecimal.valueOf(250));
+            pstmt.setTimestamp(3, Timestamp.valueOf(createdAt));
+            pstmt.setString(4, status.name());
+            pstmt.executeUpdate();
+        }
+        return id;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + PICKUP_TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail(message + " within " + PICKUP_TIMEOUT.toMillis() + " ms");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+    }
+}